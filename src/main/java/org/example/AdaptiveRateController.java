@@ -0,0 +1,136 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * AIMD-регулятор лимита запросов за окно.
+ * Лимит растет на {@code increaseStep}, пока окно выбрано полностью и сервер отвечает без признаков
+ * перегрузки, и умножается на {@code decreaseFactor} (не чаще раза за окно) при ответах 429/503,
+ * сетевых ошибках или росте задержки. Лимит никогда не выходит за пределы [minLimit, maxLimit].
+ * Рост задержки определяется по медиане не менее {@code MIN_LATENCY_SAMPLES} успешных ответов,
+ * сравниваемой с базовой задержкой, поэтому единичные медленные ответы не снижают лимит.
+ * Экземпляр хранит состояние одного лимитера и может быть подключен только к одному {@link CrptApi}.
+ */
+public class AdaptiveRateController {
+    static final int MIN_LATENCY_SAMPLES = 5;
+    private static final double BASELINE_LATENCY_WEIGHT = 0.1;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int increaseStep;
+    private final double decreaseFactor;
+    private final double latencyTolerance;
+    private int limit;
+    private boolean congested;
+    private long[] latencySamples = new long[16];
+    private int latencySampleCount;
+    private double baselineLatencyNanos;
+    private Object owner;
+
+    public AdaptiveRateController(int maxLimit) {
+        this(1, maxLimit, Math.max(1, maxLimit / 2), 1, 0.5, 2.0);
+    }
+
+    public AdaptiveRateController(
+            int minLimit,
+            int maxLimit,
+            int initialLimit,
+            int increaseStep,
+            double decreaseFactor,
+            double latencyTolerance
+    ) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Требуется 0 < minLimit <= maxLimit");
+        }
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("initialLimit должен быть в пределах [minLimit, maxLimit]");
+        }
+        if (increaseStep <= 0) {
+            throw new IllegalArgumentException("increaseStep должен быть положительным числом");
+        }
+        if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+            throw new IllegalArgumentException("decreaseFactor должен быть в интервале (0, 1)");
+        }
+        if (latencyTolerance <= 1) {
+            throw new IllegalArgumentException("latencyTolerance должен быть больше 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.increaseStep = increaseStep;
+        this.decreaseFactor = decreaseFactor;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    public synchronized int getCurrentLimit() {
+        return limit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    synchronized void attach(Object newOwner) {
+        if (owner != null && owner != newOwner) {
+            throw new IllegalStateException("AdaptiveRateController уже используется другим клиентом");
+        }
+        owner = newOwner;
+    }
+
+    synchronized void detach(Object currentOwner) {
+        if (owner == currentOwner) {
+            owner = null;
+        }
+    }
+
+    synchronized void onResponse(int status, long latencyNanos) {
+        if (status == 429 || status == 503) {
+            backOff();
+            return;
+        }
+        if (status < 200 || status >= 300) {
+            return;
+        }
+        if (latencySampleCount == latencySamples.length) {
+            latencySamples = Arrays.copyOf(latencySamples, latencySamples.length * 2);
+        }
+        latencySamples[latencySampleCount++] = latencyNanos;
+    }
+
+    synchronized void onFailure() {
+        backOff();
+    }
+
+    synchronized int onWindowEnd(int usedPermits) {
+        if (latencySampleCount >= MIN_LATENCY_SAMPLES) {
+            checkLatency();
+        }
+        if (!congested && usedPermits >= limit) {
+            limit = Math.min(maxLimit, limit + increaseStep);
+        }
+        congested = false;
+        return limit;
+    }
+
+    private void checkLatency() {
+        Arrays.sort(latencySamples, 0, latencySampleCount);
+        long medianNanos = latencySamples[latencySampleCount / 2];
+        latencySampleCount = 0;
+        if (baselineLatencyNanos == 0) {
+            baselineLatencyNanos = medianNanos;
+            return;
+        }
+        if (medianNanos > baselineLatencyNanos * latencyTolerance) {
+            backOff();
+        }
+        baselineLatencyNanos += BASELINE_LATENCY_WEIGHT * (medianNanos - baselineLatencyNanos);
+    }
+
+    private void backOff() {
+        if (congested) {
+            return;
+        }
+        congested = true;
+        limit = Math.max(minLimit, (int) (limit * decreaseFactor));
+    }
+}
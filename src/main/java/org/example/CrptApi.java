@@ -21,6 +21,7 @@ import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
@@ -28,15 +29,20 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class CrptApi {
-    private final int requestLimit;
     private final long intervalMillis;
     private int availableTokens;
+    private int usedTokens;
+    private int currentLimit;
+    private final AdaptiveRateController rateController;
     private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock authLock = new ReentrantLock();
     private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final ScheduledFuture<?> refillTask;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
-    private String authToken;
-    LocalDateTime tokenExpiration;
+    private volatile String authToken;
+    volatile LocalDateTime tokenExpiration;
     private final String baseUrl;
     private final String privateKeyAlias;
     private final String keyStorePassword;
@@ -53,19 +59,71 @@ public class CrptApi {
             String environment,
             String privateKeyAlias,
             String keyStorePassword
+    ) {
+        this(timeUnit, requestLimit, environment, privateKeyAlias, keyStorePassword, null);
+    }
+
+    public CrptApi(
+            TimeUnit timeUnit,
+            int requestLimit,
+            String environment,
+            String privateKeyAlias,
+            String keyStorePassword,
+            AdaptiveRateController rateController
+    ) {
+        this(
+                timeUnit.toMillis(1),
+                requestLimit,
+                environment,
+                privateKeyAlias,
+                keyStorePassword,
+                createHttpClient(),
+                createObjectMapper(),
+                Executors.newSingleThreadScheduledExecutor(),
+                true,
+                rateController
+        );
+    }
+
+    CrptApi(
+            long intervalMillis,
+            int requestLimit,
+            String environment,
+            String privateKeyAlias,
+            String keyStorePassword,
+            HttpClient httpClient,
+            ObjectMapper objectMapper,
+            ScheduledExecutorService scheduler,
+            boolean ownsScheduler,
+            AdaptiveRateController rateController
     ) {
         if (requestLimit <= 0) {
             throw new IllegalArgumentException("requestLimit должен быть положительным числом");
         }
-        this.requestLimit = requestLimit;
-        this.availableTokens = requestLimit;
-        this.intervalMillis = timeUnit.toMillis(1);
-        this.scheduler = Executors.newSingleThreadScheduledExecutor();
-        this.scheduler.scheduleAtFixedRate(this::refillTokens, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(30))
-                .build();
-        this.objectMapper = createObjectMapper();
+        if (rateController != null) {
+            if (rateController.getMaxLimit() != requestLimit) {
+                throw new IllegalArgumentException("maxLimit регулятора должен совпадать с requestLimit");
+            }
+            rateController.attach(this);
+        }
+        this.rateController = rateController;
+        this.currentLimit = rateController == null ? requestLimit : rateController.getCurrentLimit();
+        this.availableTokens = currentLimit;
+        this.intervalMillis = intervalMillis;
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
+        try {
+            this.refillTask = scheduler.scheduleAtFixedRate(
+                    this::refillTokens, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS
+            );
+        } catch (RuntimeException e) {
+            if (rateController != null) {
+                rateController.detach(this);
+            }
+            throw e;
+        }
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
         this.baseUrl = environment;
         this.privateKeyAlias = privateKeyAlias;
         this.keyStorePassword = keyStorePassword;
@@ -73,7 +131,13 @@ public class CrptApi {
         this.tokenExpiration = null;
     }
 
-    private ObjectMapper createObjectMapper() {
+    static HttpClient createHttpClient() {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    static ObjectMapper createObjectMapper() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
@@ -84,14 +148,61 @@ public class CrptApi {
     private void refillTokens() {
         lock.lock();
         try {
-            availableTokens = requestLimit;
+            if (rateController != null) {
+                currentLimit = rateController.onWindowEnd(usedTokens);
+            }
+            usedTokens = 0;
+            availableTokens = currentLimit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void applyRateControllerLimit() {
+        lock.lock();
+        try {
+            currentLimit = rateController.getCurrentLimit();
+            availableTokens = Math.max(0, currentLimit - usedTokens);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String getAuthToken() {
+        return authToken;
+    }
+
+    void restoreAuthToken(String authToken, LocalDateTime tokenExpiration) {
+        this.tokenExpiration = tokenExpiration;
+        this.authToken = authToken;
+    }
+
+    int getAvailableTokens() {
+        lock.lock();
+        try {
+            return availableTokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCurrentRateLimit() {
+        lock.lock();
+        try {
+            return currentLimit;
         } finally {
             lock.unlock();
         }
     }
 
     public void shutdown() {
-        scheduler.shutdown();
+        refillTask.cancel(false);
+        if (rateController != null) {
+            rateController.detach(this);
+        }
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
     }
 
     public static void main(String[] args) throws Exception {
@@ -185,11 +296,24 @@ public class CrptApi {
     }
 
     private void refreshTokenIfNeeded() throws Exception {
-        if (authToken == null || tokenExpiration == null || LocalDateTime.now().isAfter(tokenExpiration)) {
-            authenticate();
+        if (!isTokenExpired()) {
+            return;
+        }
+        authLock.lock();
+        try {
+            if (isTokenExpired()) {
+                authenticate();
+            }
+        } finally {
+            authLock.unlock();
         }
     }
 
+    private boolean isTokenExpired() {
+        LocalDateTime expiration = tokenExpiration;
+        return authToken == null || expiration == null || LocalDateTime.now().isAfter(expiration);
+    }
+
     private void authenticate() throws Exception {
         HttpResponse<String> keyResponse = httpClient.send(
             HttpRequest.newBuilder()
@@ -224,8 +348,8 @@ public class CrptApi {
         }
 
         AuthTokenResponse authTokenResponse = objectMapper.readValue(tokenResponse.body(), AuthTokenResponse.class);
-        this.authToken = authTokenResponse.getToken();
         this.tokenExpiration = LocalDateTime.now().plusHours(10);
+        this.authToken = authTokenResponse.getToken();
     }
 
     private String generateSignature(String data) {
@@ -245,6 +369,7 @@ public class CrptApi {
                 lock.lock();
             }
             availableTokens--;
+            usedTokens++;
         } finally {
             lock.unlock();
         }
@@ -263,9 +388,18 @@ public class CrptApi {
                     .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                     .build();
 
+            long startNanos = System.nanoTime();
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (rateController != null) {
+                rateController.onResponse(response.statusCode(), System.nanoTime() - startNanos);
+                applyRateControllerLimit();
+            }
             handleResponse(response);
         } catch (Exception e) {
+            if (rateController != null) {
+                rateController.onFailure();
+                applyRateControllerLimit();
+            }
             System.err.println("Error sending request: " + e.getMessage());
         }
     }
@@ -0,0 +1,238 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class CrptApiPool {
+    static final String SCHEDULER_THREAD_NAME = "crpt-api-pool-scheduler";
+
+    private final String baseUrl;
+    private final long idleTimeoutMillis;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Map<String, TenantConfig> configs = new ConcurrentHashMap<>();
+    private final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public CrptApiPool(String environment, Duration idleTimeout) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("idleTimeout должен быть положительным");
+        }
+        this.baseUrl = environment;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.httpClient = CrptApi.createHttpClient();
+        this.objectMapper = CrptApi.createObjectMapper();
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, SCHEDULER_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler.scheduleAtFixedRate(
+                this::evictIdleTenants, idleTimeoutMillis, idleTimeoutMillis, TimeUnit.MILLISECONDS
+        );
+    }
+
+    public void registerTenant(
+            String privateKeyAlias,
+            String keyStorePassword,
+            TimeUnit timeUnit,
+            int requestLimit
+    ) {
+        registerTenant(privateKeyAlias, keyStorePassword, timeUnit, requestLimit, false);
+    }
+
+    public void registerTenant(
+            String privateKeyAlias,
+            String keyStorePassword,
+            TimeUnit timeUnit,
+            int requestLimit,
+            boolean adaptiveRate
+    ) {
+        if (requestLimit <= 0) {
+            throw new IllegalArgumentException("requestLimit должен быть положительным числом");
+        }
+        TenantConfig previous = configs.putIfAbsent(
+                privateKeyAlias,
+                new TenantConfig(keyStorePassword, timeUnit, requestLimit, adaptiveRate)
+        );
+        if (previous != null) {
+            throw new IllegalArgumentException("privateKeyAlias уже зарегистрирован: " + privateKeyAlias);
+        }
+    }
+
+    public void createDocument(
+            String privateKeyAlias,
+            CrptApi.Document document,
+            String productGroup
+    ) throws InterruptedException
+    {
+        Tenant tenant = acquireTenant(privateKeyAlias);
+        try {
+            tenant.api.createDocument(document, productGroup);
+        } finally {
+            tenant.release();
+        }
+    }
+
+    public int getCurrentRateLimit(String privateKeyAlias) {
+        TenantConfig config = getConfig(privateKeyAlias);
+        return config.rateController == null
+                ? config.requestLimit
+                : config.rateController.getCurrentLimit();
+    }
+
+    public int activeTenantCount() {
+        return tenants.size();
+    }
+
+    public void shutdown() {
+        closed = true;
+        scheduler.shutdown();
+        tenants.values().forEach(tenant -> tenant.api.shutdown());
+        tenants.clear();
+    }
+
+    private TenantConfig getConfig(String privateKeyAlias) {
+        TenantConfig config = configs.get(privateKeyAlias);
+        if (config == null) {
+            throw new IllegalArgumentException("Неизвестный privateKeyAlias: " + privateKeyAlias);
+        }
+        return config;
+    }
+
+    private Tenant acquireTenant(String privateKeyAlias) {
+        TenantConfig config = getConfig(privateKeyAlias);
+        while (true) {
+            ensureOpen();
+            Tenant tenant;
+            try {
+                tenant = tenants.computeIfAbsent(privateKeyAlias, alias -> createTenant(alias, config));
+            } catch (RejectedExecutionException e) {
+                ensureOpen();
+                throw e;
+            }
+            if (tenant.tryAcquire()) {
+                if (closed) {
+                    tenant.release();
+                    tenant.api.shutdown();
+                    tenants.remove(privateKeyAlias, tenant);
+                    ensureOpen();
+                }
+                return tenant;
+            }
+            tenants.remove(privateKeyAlias, tenant);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("CrptApiPool остановлен");
+        }
+    }
+
+    private Tenant createTenant(String privateKeyAlias, TenantConfig config) {
+        long idleMillis = Math.max(idleTimeoutMillis, config.timeUnit.toMillis(1));
+        CrptApi api = new CrptApi(
+                config.timeUnit.toMillis(1),
+                config.requestLimit,
+                baseUrl,
+                privateKeyAlias,
+                config.keyStorePassword,
+                httpClient,
+                objectMapper,
+                scheduler,
+                false,
+                config.rateController
+        );
+        config.restoreAuthToken(api);
+        return new Tenant(idleMillis, config, api);
+    }
+
+    private void evictIdleTenants() {
+        long now = System.currentTimeMillis();
+        tenants.forEach((alias, tenant) -> {
+            if (tenant.tryClose(now)) {
+                tenants.remove(alias, tenant);
+            }
+        });
+    }
+
+    private static class TenantConfig {
+        private final String keyStorePassword;
+        private final TimeUnit timeUnit;
+        private final int requestLimit;
+        private final AdaptiveRateController rateController;
+        private String authToken;
+        private LocalDateTime tokenExpiration;
+
+        public TenantConfig(
+                String keyStorePassword,
+                TimeUnit timeUnit,
+                int requestLimit,
+                boolean adaptiveRate
+        ) {
+            this.keyStorePassword = keyStorePassword;
+            this.timeUnit = timeUnit;
+            this.requestLimit = requestLimit;
+            this.rateController = adaptiveRate ? new AdaptiveRateController(requestLimit) : null;
+        }
+
+        public synchronized void saveAuthToken(CrptApi api) {
+            authToken = api.getAuthToken();
+            tokenExpiration = api.tokenExpiration;
+        }
+
+        public synchronized void restoreAuthToken(CrptApi api) {
+            api.restoreAuthToken(authToken, tokenExpiration);
+        }
+    }
+
+    private static class Tenant {
+        private final long idleMillis;
+        private final TenantConfig config;
+        private final CrptApi api;
+        private int inFlight;
+        private long lastAccessMillis = System.currentTimeMillis();
+        private boolean closed;
+
+        public Tenant(long idleMillis, TenantConfig config, CrptApi api) {
+            this.idleMillis = idleMillis;
+            this.config = config;
+            this.api = api;
+        }
+
+        public synchronized boolean tryAcquire() {
+            if (closed) {
+                return false;
+            }
+            inFlight++;
+            lastAccessMillis = System.currentTimeMillis();
+            return true;
+        }
+
+        public synchronized void release() {
+            inFlight--;
+            lastAccessMillis = System.currentTimeMillis();
+        }
+
+        public synchronized boolean tryClose(long nowMillis) {
+            if (inFlight > 0 || nowMillis - lastAccessMillis < idleMillis) {
+                return false;
+            }
+            closed = true;
+            config.saveAuthToken(api);
+            api.shutdown();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.example;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.example.CrptApiTestSupport.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveRateControllerTest {
+    private static final long WINDOW_MILLIS = 100;
+    private static final long PHASE_MILLIS = 1500;
+
+    @Test
+    void testAdditiveIncreaseUpToCeiling() {
+        AdaptiveRateController controller = new AdaptiveRateController(1, 5, 3, 1, 0.5, 2.0);
+
+        assertEquals(4, controller.onWindowEnd(3));
+        assertEquals(5, controller.onWindowEnd(4));
+        assertEquals(5, controller.onWindowEnd(5));
+    }
+
+    @Test
+    void testNoIncreaseWhenWindowIsUnderused() {
+        AdaptiveRateController controller = new AdaptiveRateController(1, 10, 4, 1, 0.5, 2.0);
+
+        assertEquals(4, controller.onWindowEnd(2));
+    }
+
+    @Test
+    void testMultiplicativeDecreaseOncePerWindow() {
+        AdaptiveRateController controller = new AdaptiveRateController(1, 20, 16, 1, 0.5, 2.0);
+
+        controller.onResponse(429, 1_000_000);
+        controller.onResponse(503, 1_000_000);
+        assertEquals(8, controller.getCurrentLimit());
+
+        assertEquals(8, controller.onWindowEnd(8));
+        controller.onFailure();
+        assertEquals(4, controller.getCurrentLimit());
+    }
+
+    @Test
+    void testDecreaseNeverGoesBelowMinimum() {
+        AdaptiveRateController controller = new AdaptiveRateController(2, 20, 3, 1, 0.5, 2.0);
+
+        controller.onResponse(429, 1_000_000);
+        controller.onWindowEnd(0);
+        controller.onResponse(429, 1_000_000);
+
+        assertEquals(2, controller.getCurrentLimit());
+    }
+
+    @Test
+    void testBackOffOnSustainedLatencyRise() {
+        AdaptiveRateController controller = new AdaptiveRateController(1, 20, 10, 1, 0.5, 2.0);
+
+        respond(controller, 10, 1_000_000);
+        assertEquals(11, controller.onWindowEnd(10));
+
+        respond(controller, 11, 20_000_000);
+        assertEquals(5, controller.onWindowEnd(11));
+    }
+
+    @Test
+    void testSingleSlowResponseDoesNotBackOff() {
+        AdaptiveRateController controller = new AdaptiveRateController(1, 20, 10, 1, 0.5, 2.0);
+
+        respond(controller, 10, 1_000_000);
+        assertEquals(11, controller.onWindowEnd(10));
+
+        respond(controller, 10, 1_000_000);
+        controller.onResponse(200, 10_000_000);
+        assertEquals(11, controller.getCurrentLimit());
+        assertEquals(12, controller.onWindowEnd(11));
+    }
+
+    @Test
+    void testLatencyIsIgnoredUntilEnoughSamples() {
+        AdaptiveRateController controller = new AdaptiveRateController(1, 20, 2, 1, 0.5, 2.0);
+
+        respond(controller, AdaptiveRateController.MIN_LATENCY_SAMPLES, 1_000_000);
+        controller.onWindowEnd(0);
+
+        respond(controller, AdaptiveRateController.MIN_LATENCY_SAMPLES - 1, 50_000_000);
+        assertEquals(3, controller.onWindowEnd(2));
+    }
+
+    @Test
+    void testSimulationAgainstServerWithChangingCapacity() throws Exception {
+        MockWebServer mockWebServer = new MockWebServer();
+        CapacityDispatcher dispatcher = new CapacityDispatcher(12, 2, 12);
+        mockWebServer.setDispatcher(dispatcher);
+        mockWebServer.start();
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        CrptApi crptApi = new CrptApi(
+                WINDOW_MILLIS,
+                20,
+                baseUrl(mockWebServer),
+                "test-key",
+                "test-password",
+                CrptApi.createHttpClient(),
+                CrptApi.createObjectMapper(),
+                scheduler,
+                true,
+                // Задержка на localhost нестабильна; здесь проверяется реакция только на 429.
+                new AdaptiveRateController(1, 20, 10, 1, 0.5, 100.0)
+        );
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        CrptApi.Document document = createTestDocument();
+        for (int i = 0; i < 4; i++) {
+            clients.submit(() -> {
+                while (running.get()) {
+                    crptApi.createDocument(document, "electronics");
+                }
+                return null;
+            });
+        }
+
+        List<List<Integer>> phaseLimits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            phaseLimits.add(new ArrayList<>());
+        }
+        int maxObservedLimit = 0;
+        try {
+            long start = dispatcher.awaitStart();
+            for (long elapsed = WINDOW_MILLIS; elapsed <= 3 * PHASE_MILLIS; elapsed += WINDOW_MILLIS) {
+                Thread.sleep(Math.max(0, start + elapsed - System.currentTimeMillis()));
+                int limit = crptApi.getCurrentRateLimit();
+                maxObservedLimit = Math.max(maxObservedLimit, limit);
+                if (elapsed % PHASE_MILLIS > PHASE_MILLIS / 3) {
+                    phaseLimits.get((int) ((elapsed - 1) / PHASE_MILLIS)).add(limit);
+                }
+            }
+        } finally {
+            running.set(false);
+            clients.shutdown();
+            clients.awaitTermination(5, TimeUnit.SECONDS);
+            crptApi.shutdown();
+            mockWebServer.shutdown();
+        }
+
+        assertTrue(maxObservedLimit <= 20, "Rate exceeded configured ceiling: " + maxObservedLimit);
+        assertTrue(average(phaseLimits.get(0)) >= 6, "Rate did not grow on healthy server: " + phaseLimits);
+        assertTrue(average(phaseLimits.get(1)) <= 4, "Rate did not back off on throttling: " + phaseLimits);
+        assertTrue(average(phaseLimits.get(2)) >= 6, "Rate did not recover with capacity: " + phaseLimits);
+    }
+
+    private static void respond(AdaptiveRateController controller, int count, long latencyNanos) {
+        for (int i = 0; i < count; i++) {
+            controller.onResponse(200, latencyNanos);
+        }
+    }
+
+    private static double average(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).average().orElse(0);
+    }
+
+    private static class CapacityDispatcher extends CrptApiTestSupport.AuthDispatcher {
+        private final int[] phaseCapacities;
+        private final AtomicLong start = new AtomicLong();
+        private double availablePermits;
+        private long lastRefillMillis;
+
+        CapacityDispatcher(int... phaseCapacities) {
+            this.phaseCapacities = phaseCapacities;
+        }
+
+        long awaitStart() throws InterruptedException {
+            while (start.get() == 0) {
+                Thread.sleep(5);
+            }
+            return start.get();
+        }
+
+        @Override
+        MockResponse dispatchDocument(RecordedRequest request) {
+            start.compareAndSet(0, System.currentTimeMillis());
+            long elapsed = System.currentTimeMillis() - start.get();
+            if (!tryAcquirePermit(elapsed)) {
+                return tooManyRequestsResponse();
+            }
+            return super.dispatchDocument(request);
+        }
+
+        private synchronized boolean tryAcquirePermit(long elapsed) {
+            int capacity = phaseCapacities[(int) Math.min(phaseCapacities.length - 1, elapsed / PHASE_MILLIS)];
+            availablePermits = Math.min(
+                    capacity,
+                    availablePermits + (double) capacity * (elapsed - lastRefillMillis) / WINDOW_MILLIS
+            );
+            lastRefillMillis = elapsed;
+            if (availablePermits < 1) {
+                return false;
+            }
+            availablePermits--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.example;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.CrptApiTestSupport.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrptApiPoolTest {
+    private MockWebServer mockWebServer;
+    private CrptApiPool pool;
+
+    private final CrptApi.Document testDocument = createTestDocument();
+    private final String testProductGroup = "electronics";
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        pool = new CrptApiPool(baseUrl(mockWebServer), Duration.ofMillis(100));
+        pool.registerTenant("tenant-a", "password-a", TimeUnit.MILLISECONDS, 1);
+        pool.registerTenant("tenant-b", "password-b", TimeUnit.MILLISECONDS, 1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+        pool.shutdown();
+    }
+
+    @Test
+    void testTenantsAreInitializedLazily() throws Exception {
+        assertEquals(0, pool.activeTenantCount());
+
+        enqueueAuthentication(mockWebServer, "token-a");
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        pool.createDocument("tenant-a", testDocument, testProductGroup);
+
+        assertEquals(1, pool.activeTenantCount());
+    }
+
+    @Test
+    void testTenantsUseSeparateAuthTokens() throws Exception {
+        enqueueAuthentication(mockWebServer, "token-a");
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        pool.createDocument("tenant-a", testDocument, testProductGroup);
+
+        enqueueAuthentication(mockWebServer, "token-b");
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        pool.createDocument("tenant-b", testDocument, testProductGroup);
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        pool.createDocument("tenant-a", testDocument, testProductGroup);
+
+        assertEquals(7, mockWebServer.getRequestCount());
+        mockWebServer.takeRequest();
+        mockWebServer.takeRequest();
+        assertEquals("Bearer token-a", mockWebServer.takeRequest().getHeader("Authorization"));
+        mockWebServer.takeRequest();
+        mockWebServer.takeRequest();
+        assertEquals("Bearer token-b", mockWebServer.takeRequest().getHeader("Authorization"));
+        assertEquals("Bearer token-a", mockWebServer.takeRequest().getHeader("Authorization"));
+    }
+
+    @Test
+    void testEvictedTenantKeepsAuthToken() throws Exception {
+        enqueueAuthentication(mockWebServer, "first-token");
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        pool.createDocument("tenant-a", testDocument, testProductGroup);
+        assertEquals(1, pool.activeTenantCount());
+
+        awaitActiveTenantCount(0);
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        pool.createDocument("tenant-a", testDocument, testProductGroup);
+
+        assertEquals(4, mockWebServer.getRequestCount());
+        mockWebServer.takeRequest();
+        mockWebServer.takeRequest();
+        mockWebServer.takeRequest();
+        RecordedRequest lastRequest = mockWebServer.takeRequest();
+        assertEquals("Bearer first-token", lastRequest.getHeader("Authorization"));
+    }
+
+    @Test
+    void testTenantIsNotEvictedBeforeRateWindowEnds() throws Exception {
+        mockWebServer.setDispatcher(new CrptApiTestSupport.AuthDispatcher());
+        pool.registerTenant("tenant-c", "password-c", TimeUnit.SECONDS, 1);
+
+        long start = System.nanoTime();
+        pool.createDocument("tenant-c", testDocument, testProductGroup);
+        Thread.sleep(300);
+        assertEquals(1, pool.activeTenantCount());
+
+        pool.createDocument("tenant-c", testDocument, testProductGroup);
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(durationMillis >= 900, "Evicted tenant bypassed its rate limit: " + durationMillis);
+    }
+
+    @Test
+    void testThrottledTenantDoesNotBlockOthers() throws Exception {
+        mockWebServer.setDispatcher(new CrptApiTestSupport.AuthDispatcher());
+        pool.registerTenant("tenant-c", "password-c", TimeUnit.SECONDS, 1);
+        pool.createDocument("tenant-c", testDocument, testProductGroup);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> throttled = executor.submit(() -> {
+                pool.createDocument("tenant-c", testDocument, testProductGroup);
+                return null;
+            });
+
+            pool.createDocument("tenant-b", testDocument, testProductGroup);
+
+            assertFalse(throttled.isDone(), "Throttled tenant finished before the other tenant");
+            throttled.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testThreadCountDoesNotGrowWithTenants() throws Exception {
+        mockWebServer.setDispatcher(new CrptApiTestSupport.AuthDispatcher());
+        long selectorThreadsBefore = countThreads("SelectorManager");
+
+        for (int i = 0; i < 20; i++) {
+            String alias = "tenant-" + i;
+            pool.registerTenant(alias, "password", TimeUnit.MILLISECONDS, 1);
+            pool.createDocument(alias, testDocument, testProductGroup);
+        }
+
+        assertEquals(1, countThreads(CrptApiPool.SCHEDULER_THREAD_NAME));
+        assertTrue(countThreads("SelectorManager") <= selectorThreadsBefore, "HttpClient created per tenant");
+    }
+
+    @Test
+    void testCurrentRateLimitIsExposedPerTenant() throws Exception {
+        mockWebServer.setDispatcher(new CrptApiTestSupport.AuthDispatcher());
+        pool.registerTenant("tenant-adaptive", "password", TimeUnit.HOURS, 10, true);
+
+        assertEquals(1, pool.getCurrentRateLimit("tenant-a"));
+        assertEquals(5, pool.getCurrentRateLimit("tenant-adaptive"));
+
+        pool.createDocument("tenant-adaptive", testDocument, testProductGroup);
+        assertEquals(5, pool.getCurrentRateLimit("tenant-adaptive"));
+
+        mockWebServer.setDispatcher(new CrptApiTestSupport.AuthDispatcher() {
+            @Override
+            MockResponse dispatchDocument(RecordedRequest request) {
+                return tooManyRequestsResponse();
+            }
+        });
+        pool.createDocument("tenant-adaptive", testDocument, testProductGroup);
+        assertEquals(2, pool.getCurrentRateLimit("tenant-adaptive"));
+        assertThrows(IllegalArgumentException.class, () -> pool.getCurrentRateLimit("unknown"));
+    }
+
+    @Test
+    void testDuplicateRegistrationIsRejected() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> pool.registerTenant("tenant-a", "new-password", TimeUnit.SECONDS, 10)
+        );
+    }
+
+    @Test
+    void testPoolRejectsRequestsAfterShutdown() {
+        pool.shutdown();
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> pool.createDocument("tenant-a", testDocument, testProductGroup)
+        );
+        assertEquals(0, pool.activeTenantCount());
+    }
+
+    @Test
+    void testUnknownTenant() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> pool.createDocument("unknown", testDocument, testProductGroup)
+        );
+    }
+
+    private void awaitActiveTenantCount(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.activeTenantCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, pool.activeTenantCount());
+    }
+
+    private long countThreads(String namePart) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().contains(namePart))
+                .count();
+    }
+}
@@ -10,12 +10,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import static org.example.CrptApiTestSupport.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 class CrptApiTest {
@@ -144,29 +145,93 @@ class CrptApiTest {
         assertEquals("Bearer second-token", lastRequest.getHeader("Authorization"));
     }
 
-    private CrptApi.Document createTestDocument() {
-        CrptApi.Description description = new CrptApi.Description("1234567890");
-        List<CrptApi.Product> products = Collections.singletonList(
-                new CrptApi.Product(
-                        "cert_doc_123", LocalDate.now(), "cert_num_456",
-                        "owner_inn_1", "producer_inn_2", LocalDate.now(),
-                        "tnved_code_789", "uit_code_abc", "uitu_code_def"
-                )
+    @Test
+    void testControllerIsReleasedWhenConstructionFails() {
+        AdaptiveRateController controller = new AdaptiveRateController(10);
+        ScheduledExecutorService terminatedScheduler = Executors.newSingleThreadScheduledExecutor();
+        terminatedScheduler.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> new CrptApi(
+                1000,
+                10,
+                "http://localhost",
+                "key",
+                "password",
+                CrptApi.createHttpClient(),
+                CrptApi.createObjectMapper(),
+                terminatedScheduler,
+                true,
+                controller
+        ));
+
+        new CrptApi(TimeUnit.SECONDS, 10, "http://localhost", "key", "password", controller).shutdown();
+    }
+
+    @Test
+    void testControllerMustMatchRequestLimit() {
+        AdaptiveRateController controller = new AdaptiveRateController(1, 1000, 500, 1, 0.5, 2.0);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new CrptApi(TimeUnit.SECONDS, 10, "http://localhost", "key", "password", controller)
         );
-        return new CrptApi.Document(
-                description,
-                "doc_123",
-                "DRAFT",
-                "LP_INTRODUCE_GOODS",
-                false,
-                "owner_inn_3",
-                "participant_inn_4",
-                "producer_inn_5",
-                LocalDate.now(),
-                "OWN_PRODUCTION",
-                products,
-                LocalDate.now(),
-                "reg_num_001"
+    }
+
+    @Test
+    void testControllerCannotBeSharedBetweenClients() {
+        AdaptiveRateController controller = new AdaptiveRateController(10);
+        CrptApi first = new CrptApi(TimeUnit.SECONDS, 10, "http://localhost", "key-1", "password", controller);
+        try {
+            assertThrows(
+                    IllegalStateException.class,
+                    () -> new CrptApi(TimeUnit.SECONDS, 10, "http://localhost", "key-2", "password", controller)
+            );
+        } finally {
+            first.shutdown();
+        }
+
+        CrptApi second = new CrptApi(TimeUnit.SECONDS, 10, "http://localhost", "key-2", "password", controller);
+        second.shutdown();
+    }
+
+    @Test
+    void testBackOffAppliesWithinCurrentWindow() throws Exception {
+        assertTokensAfterThrottling(0, 4, 3);
+    }
+
+    @Test
+    void testBackOffAfterMostOfWindowIsUsed() throws Exception {
+        assertTokensAfterThrottling(6, 4, 0);
+    }
+
+    private void assertTokensAfterThrottling(
+            int successfulRequests,
+            int expectedLimit,
+            int expectedAvailableTokens
+    ) throws Exception {
+        CrptApi adaptiveApi = new CrptApi(
+                TimeUnit.HOURS,
+                8,
+                baseUrl(mockWebServer),
+                "test-key",
+                "test-password",
+                new AdaptiveRateController(1, 8, 8, 1, 0.5, 2.0)
         );
+        try {
+            enqueueAuthentication(mockWebServer, "test-token");
+            for (int i = 0; i < successfulRequests; i++) {
+                mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+            }
+            mockWebServer.enqueue(tooManyRequestsResponse());
+
+            for (int i = 0; i <= successfulRequests; i++) {
+                adaptiveApi.createDocument(testDocument, testProductGroup);
+            }
+
+            assertEquals(expectedLimit, adaptiveApi.getCurrentRateLimit());
+            assertEquals(expectedAvailableTokens, adaptiveApi.getAvailableTokens());
+        } finally {
+            adaptiveApi.shutdown();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package org.example;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.time.LocalDate;
+import java.util.Collections;
+
+final class CrptApiTestSupport {
+    private CrptApiTestSupport() {
+    }
+
+    static String baseUrl(MockWebServer mockWebServer) {
+        return mockWebServer.url("").toString().replaceAll("/$", "");
+    }
+
+    static void enqueueAuthentication(MockWebServer mockWebServer, String token) {
+        mockWebServer.enqueue(authKeyResponse());
+        mockWebServer.enqueue(authTokenResponse(token));
+    }
+
+    static MockResponse tooManyRequestsResponse() {
+        return new MockResponse()
+                .setResponseCode(429)
+                .setBody("{\"error_message\":\"Too many requests\"}");
+    }
+
+    static CrptApi.Document createTestDocument() {
+        CrptApi.Description description = new CrptApi.Description("1234567890");
+        return new CrptApi.Document(
+                description,
+                "doc_123",
+                "DRAFT",
+                "LP_INTRODUCE_GOODS",
+                false,
+                "owner_inn_3",
+                "participant_inn_4",
+                "producer_inn_5",
+                LocalDate.now(),
+                "OWN_PRODUCTION",
+                Collections.singletonList(new CrptApi.Product(
+                        "cert_doc_123", LocalDate.now(), "cert_num_456",
+                        "owner_inn_1", "producer_inn_2", LocalDate.now(),
+                        "tnved_code_789", "uit_code_abc", "uitu_code_def"
+                )),
+                LocalDate.now(),
+                "reg_num_001"
+        );
+    }
+
+    private static MockResponse authKeyResponse() {
+        return new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"uuid\":\"auth-uuid\",\"data\":\"data-to-sign\"}");
+    }
+
+    private static MockResponse authTokenResponse(String token) {
+        return new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"token\":\"" + token + "\"}");
+    }
+
+    static class AuthDispatcher extends Dispatcher {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            String path = request.getPath();
+            if (path.startsWith("/api/v3/auth/cert/key")) {
+                return authKeyResponse();
+            }
+            if (path.startsWith("/api/v3/auth/cert/")) {
+                return authTokenResponse("test-token");
+            }
+            return dispatchDocument(request);
+        }
+
+        MockResponse dispatchDocument(RecordedRequest request) {
+            return new MockResponse().setResponseCode(200).setBody("{\"value\":\"document-id\"}");
+        }
+    }
+}